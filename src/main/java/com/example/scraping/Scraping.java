@@ -2,12 +2,35 @@ package com.example.scraping;
 
 import com.example.scraping.scrap.ScrapBaoMoi;
 import com.example.scraping.service.ScrapDataService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the crawl as a background job once the application is ready, so startup,
+ * readiness and liveness are not held up by a multi-hour crawl.
+ */
 @Component
-public class Scraping implements CommandLineRunner {
+@ConditionalOnProperty(name = "scraping.enabled", havingValue = "true", matchIfMissing = true)
+public class Scraping implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(Scraping.class);
+
+    public enum State {
+        PENDING, RUNNING, COMPLETED, INTERRUPTED, FAILED
+    }
 
     @Autowired
     private ScrapBaoMoi scrapBaoMoi;
@@ -15,25 +38,87 @@ public class Scraping implements CommandLineRunner {
     @Autowired
     private ScrapDataService scrapDataService;
 
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
+
+    private volatile State state = State.PENDING;
+    private volatile String failure;
+    private volatile Future<?> crawl;
+
     public static void main(String[] args) {
         // This will be handled by Spring Boot Application class
     }
 
-    @Override
-    public void run(String... args) throws Exception {
-        System.out.println("Starting BaoMoi scraping process...");
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        crawl = taskExecutor.submit(this::run);
+    }
 
-        // Show initial database stats
-        scrapDataService.showDatabaseStats();
+    // The executor only stops accepting tasks on close and then waits for running ones, so the crawl is interrupted here
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        Future<?> running = crawl;
+        if (running != null) {
+            running.cancel(true);
+        }
+    }
 
-        // Start scraping
-        scrapBaoMoi.startScraping();
+    public void run() {
+        state = State.RUNNING;
+        logger.info("Starting BaoMoi scraping process...");
 
-        // Show final database stats
-        System.out.println("\n=== SCRAPING COMPLETED ===");
-        scrapDataService.showDatabaseStats();
-        scrapDataService.validateArticleContent();
+        try {
+            // Show initial database stats without delaying the crawl
+            CompletableFuture<Void> initialStats = CompletableFuture.runAsync(scrapDataService::showDatabaseStats, taskExecutor);
 
-        System.out.println("Scraping process completed!");
+            // Start scraping
+            scrapBaoMoi.startScraping();
+            initialStats.join();
+
+            // Show final database stats
+            logger.info("=== SCRAPING COMPLETED ===");
+            scrapDataService.showDatabaseStats();
+            scrapDataService.validateArticleContent();
+
+            state = State.COMPLETED;
+            logger.info("Scraping process completed!");
+        } catch (InterruptedException e) {
+            markInterrupted();
+        } catch (Exception e) {
+            // An interrupted fetch during URL discovery surfaces as an IOException
+            if (Thread.currentThread().isInterrupted()) {
+                markInterrupted();
+                return;
+            }
+            failure = e.getMessage();
+            state = State.FAILED;
+            logger.error("Scraping process failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Shutdown interrupted the crawl, the final stats and validation are skipped
+    private void markInterrupted() {
+        state = State.INTERRUPTED;
+        Thread.currentThread().interrupt();
+        logger.warn("Scraping process interrupted before completion");
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (state) {
+            case FAILED -> Health.down();
+            case INTERRUPTED -> Health.outOfService();
+            default -> Health.up();
+        };
+        builder.withDetail("state", state);
+        if (failure != null) {
+            builder.withDetail("error", failure);
+        }
+        return builder.build();
     }
 }
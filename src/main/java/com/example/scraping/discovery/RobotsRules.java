@@ -0,0 +1,185 @@
+package com.example.scraping.discovery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed robots.txt rules for one host, following RFC 9309: the most specific
+ * (longest) matching rule wins and Allow wins ties.
+ */
+public class RobotsRules {
+
+    private static final RobotsRules ALLOW_ALL = new RobotsRules(List.of(), 0, List.of(), false);
+    private static final RobotsRules UNAVAILABLE = new RobotsRules(List.of(new Rule("/", false)), 0, List.of(), true);
+
+    private final List<Rule> rules;
+    private final long crawlDelayMillis;
+    private final List<String> sitemaps;
+    private final boolean unavailable;
+
+    private RobotsRules(List<Rule> rules, long crawlDelayMillis, List<String> sitemaps, boolean unavailable) {
+        this.rules = rules;
+        this.crawlDelayMillis = crawlDelayMillis;
+        this.sitemaps = sitemaps;
+        this.unavailable = unavailable;
+    }
+
+    public static RobotsRules allowAll() {
+        return ALLOW_ALL;
+    }
+
+    // Rules used when robots.txt could not be fetched, everything is disallowed
+    public static RobotsRules unavailable() {
+        return UNAVAILABLE;
+    }
+
+    public static RobotsRules parse(String content, String agent) {
+        String agentToken = agent.toLowerCase(Locale.ROOT);
+
+        List<Rule> agentRules = new ArrayList<>();
+        List<Rule> wildcardRules = new ArrayList<>();
+        long agentDelay = -1;
+        long wildcardDelay = -1;
+        boolean agentGroupFound = false;
+        List<String> sitemaps = new ArrayList<>();
+
+        // State of the group currently being read
+        boolean groupMatchesAgent = false;
+        boolean groupMatchesWildcard = false;
+        boolean readingAgents = false;
+
+        for (String rawLine : content.split("\r?\n|\r")) {
+            int commentStart = rawLine.indexOf('#');
+            String line = (commentStart >= 0 ? rawLine.substring(0, commentStart) : rawLine).trim();
+            int separator = line.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+
+            String key = line.substring(0, separator).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(separator + 1).trim();
+
+            switch (key) {
+                case "user-agent" -> {
+                    if (!readingAgents) {
+                        groupMatchesAgent = false;
+                        groupMatchesWildcard = false;
+                        readingAgents = true;
+                    }
+                    String token = value.toLowerCase(Locale.ROOT);
+                    if (token.equals("*")) {
+                        groupMatchesWildcard = true;
+                    } else if (token.equals(agentToken)) {
+                        groupMatchesAgent = true;
+                        agentGroupFound = true;
+                    }
+                }
+                case "allow", "disallow" -> {
+                    readingAgents = false;
+                    // An empty Disallow allows everything and adds no rule
+                    if (value.isEmpty()) {
+                        continue;
+                    }
+                    Rule rule = new Rule(value, key.equals("allow"));
+                    if (groupMatchesAgent) {
+                        agentRules.add(rule);
+                    }
+                    if (groupMatchesWildcard) {
+                        wildcardRules.add(rule);
+                    }
+                }
+                case "crawl-delay" -> {
+                    readingAgents = false;
+                    long delay = parseDelayMillis(value);
+                    if (groupMatchesAgent) {
+                        agentDelay = delay;
+                    }
+                    if (groupMatchesWildcard) {
+                        wildcardDelay = delay;
+                    }
+                }
+                case "sitemap" -> sitemaps.add(value);
+                default -> readingAgents = false;
+            }
+        }
+
+        List<Rule> rules = agentGroupFound ? agentRules : wildcardRules;
+        long delay = agentGroupFound ? agentDelay : wildcardDelay;
+        return new RobotsRules(List.copyOf(rules), Math.max(delay, 0), List.copyOf(sitemaps), false);
+    }
+
+    public boolean isAllowed(String path) {
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+
+        Rule bestMatch = null;
+        for (Rule rule : rules) {
+            if (rule.matches(path) && (bestMatch == null
+                    || rule.length() > bestMatch.length()
+                    || (rule.length() == bestMatch.length() && rule.allow()))) {
+                bestMatch = rule;
+            }
+        }
+        return bestMatch == null || bestMatch.allow();
+    }
+
+    public boolean isUnavailable() {
+        return unavailable;
+    }
+
+    public long getCrawlDelayMillis() {
+        return crawlDelayMillis;
+    }
+
+    public List<String> getSitemaps() {
+        return sitemaps;
+    }
+
+    private static long parseDelayMillis(String value) {
+        try {
+            return (long) (Double.parseDouble(value) * 1000);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Rule(String path, boolean allow, Pattern pattern) {
+
+        Rule(String path, boolean allow) {
+            this(path, allow, toPattern(path));
+        }
+
+        boolean matches(String target) {
+            return pattern == null ? target.startsWith(path) : pattern.matcher(target).lookingAt();
+        }
+
+        int length() {
+            return path.length();
+        }
+
+        // Plain prefixes are matched with startsWith, only wildcard rules need a regex
+        private static Pattern toPattern(String path) {
+            if (path.indexOf('*') < 0 && !path.endsWith("$")) {
+                return null;
+            }
+
+            boolean anchored = path.endsWith("$");
+            String body = anchored ? path.substring(0, path.length() - 1) : path;
+            StringBuilder regex = new StringBuilder();
+            String[] parts = body.split("\\*", -1);
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) {
+                    regex.append(".*");
+                }
+                regex.append(Pattern.quote(parts[i]));
+            }
+            if (anchored) {
+                regex.append('$');
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.scraping.discovery;
+
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetches robots.txt once per host and keeps the parsed rules for a bounded time.
+ */
+@Component
+public class RobotsRulesCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RobotsRulesCache.class);
+
+    @Value("${scraping.robots.agent:scraping}")
+    private String agent;
+
+    @Value("${scraping.robots.cache-ttl:86400000}")
+    private long cacheTtl;
+
+    // Short TTL for failed fetches, so a transient error is retried instead of blocking the whole run
+    @Value("${scraping.robots.failure-ttl:60000}")
+    private long failureTtl;
+
+    @Value("${scraping.timeout:15000}")
+    private int timeout;
+
+    // Carries the same product token the rules are matched for
+    @Value("${scraping.user-agent:${scraping.robots.agent:scraping}/1.0}")
+    private String userAgent;
+
+    private final Map<String, CachedRules> cache = new ConcurrentHashMap<>();
+
+    public RobotsRules getRules(String url) {
+        int pathStart = pathStart(url);
+        String origin = pathStart < 0 ? url : url.substring(0, pathStart);
+
+        CachedRules cached = cache.get(origin);
+        if (cached == null || cached.expiresAt() < System.currentTimeMillis()) {
+            cached = cache.compute(origin, (key, current) ->
+                    current != null && current.expiresAt() >= System.currentTimeMillis()
+                            ? current
+                            : cacheEntry(fetchRules(key)));
+        }
+        return cached.rules();
+    }
+
+    public boolean isAllowed(String url) {
+        int pathStart = pathStart(url);
+        String path = pathStart < 0 ? "/" : url.substring(pathStart);
+        int fragment = path.indexOf('#');
+        if (fragment >= 0) {
+            path = path.substring(0, fragment);
+        }
+        return getRules(url).isAllowed(path);
+    }
+
+    // Index of the path after scheme and authority, or -1 when the URL has no path
+    private static int pathStart(String url) {
+        int schemeEnd = url.indexOf("://");
+        return url.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+    }
+
+    private CachedRules cacheEntry(RobotsRules rules) {
+        long ttl = rules.isUnavailable() ? failureTtl : cacheTtl;
+        return new CachedRules(rules, System.currentTimeMillis() + ttl);
+    }
+
+    private RobotsRules fetchRules(String origin) {
+        String robotsUrl = origin + "/robots.txt";
+        try {
+            Connection.Response response = Jsoup.connect(robotsUrl)
+                    .userAgent(userAgent)
+                    .ignoreContentType(true)
+                    .ignoreHttpErrors(true)
+                    .timeout(timeout)
+                    .execute();
+
+            int status = response.statusCode();
+            if (status >= 200 && status < 300) {
+                RobotsRules rules = RobotsRules.parse(response.body(), agent);
+                logger.info("Loaded robots.txt from {} (crawl delay {} ms, {} sitemaps)",
+                        robotsUrl, rules.getCrawlDelayMillis(), rules.getSitemaps().size());
+                return rules;
+            }
+
+            // RFC 9309: a missing robots.txt allows everything, an unreachable one disallows everything
+            if (status >= 400 && status < 500) {
+                logger.info("No robots.txt at {} (status {}), all paths allowed", robotsUrl, status);
+                return RobotsRules.allowAll();
+            }
+            logger.warn("robots.txt at {} unavailable (status {}), all paths disallowed for {} ms",
+                    robotsUrl, status, failureTtl);
+            return RobotsRules.unavailable();
+
+        } catch (Exception e) {
+            logger.warn("Error fetching robots.txt from {}, all paths disallowed for {} ms: {}",
+                    robotsUrl, failureTtl, e.getMessage());
+            return RobotsRules.unavailable();
+        }
+    }
+
+    private record CachedRules(RobotsRules rules, long expiresAt) {
+    }
+}
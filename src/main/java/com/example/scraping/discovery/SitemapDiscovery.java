@@ -0,0 +1,294 @@
+package com.example.scraping.discovery;
+
+import com.example.scraping.dto.SitemapEntry;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Discovers article URLs and their last modification dates from sitemaps, reading
+ * sitemap indexes, plain sitemaps and Google News sitemaps with a streaming parser.
+ */
+@Component
+public class SitemapDiscovery {
+
+    private static final Logger logger = LoggerFactory.getLogger(SitemapDiscovery.class);
+
+    // Fallback locations when robots.txt declares no sitemap
+    private static final String[] DEFAULT_SITEMAPS = {"/news-sitemap.xml", "/sitemap.xml"};
+
+    @Value("${scraping.sitemap.max-files:20}")
+    private int maxFiles;
+
+    @Value("${scraping.timeout:15000}")
+    private int timeout;
+
+    @Value("${scraping.user-agent:${scraping.robots.agent:scraping}/1.0}")
+    private String userAgent;
+
+    private final XMLInputFactory xmlInputFactory = createXmlInputFactory();
+
+    public List<SitemapEntry> discover(String baseUrl, List<String> declaredSitemaps, int maxUrls) {
+        Deque<String> roots = new ArrayDeque<>();
+        if (declaredSitemaps.isEmpty()) {
+            for (String path : DEFAULT_SITEMAPS) {
+                roots.add(baseUrl + path);
+            }
+        } else {
+            roots.addAll(declaredSitemaps);
+        }
+
+        NewestEntries entries = new NewestEntries(maxUrls);
+        PendingSitemaps children = new PendingSitemaps();
+        Set<String> visited = new HashSet<>();
+        int fetched = 0;
+
+        // Declared sitemaps first, then index children newest first, so the file budget goes to recent content
+        while ((!roots.isEmpty() || !children.isEmpty()) && fetched < maxFiles) {
+            String sitemapUrl = !roots.isEmpty() ? roots.poll() : children.poll();
+            if (!visited.add(sitemapUrl)) {
+                continue;
+            }
+
+            fetched++;
+            try {
+                readSitemap(sitemapUrl, entries, children);
+            } catch (Exception e) {
+                logger.warn("Error reading sitemap {}: {}", sitemapUrl, e.getMessage());
+            }
+        }
+
+        List<SitemapEntry> newest = entries.toList();
+        logger.info("Discovered {} URLs from {} sitemaps", newest.size(), fetched);
+        return newest;
+    }
+
+    private void readSitemap(String sitemapUrl, NewestEntries entries, PendingSitemaps children) throws Exception {
+        Connection.Response response = Jsoup.connect(sitemapUrl)
+                .userAgent(userAgent)
+                .ignoreContentType(true)
+                .ignoreHttpErrors(true)
+                .maxBodySize(0)
+                .timeout(timeout)
+                .execute();
+
+        if (response.statusCode() != 200) {
+            logger.debug("Sitemap {} returned status {}", sitemapUrl, response.statusCode());
+            return;
+        }
+
+        try (InputStream body = response.bodyStream()) {
+            parse(body, sitemapUrl, entries, children);
+        }
+    }
+
+    // Child sitemaps of an index on the same host are added to children, page entries are offered to entries
+    void parse(InputStream body, String sitemapUrl, NewestEntries entries, PendingSitemaps children)
+            throws IOException, XMLStreamException {
+        XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(decompressIfGzipped(body));
+        try {
+            parse(reader, hostOf(sitemapUrl), entries, children);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void parse(XMLStreamReader reader, String sitemapHost, NewestEntries entries, PendingSitemaps children)
+            throws XMLStreamException {
+        boolean inSitemap = false;
+        boolean inUrl = false;
+        String loc = null;
+        String lastModified = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "sitemap" -> {
+                        inSitemap = true;
+                        loc = null;
+                        lastModified = null;
+                    }
+                    case "url" -> {
+                        inUrl = true;
+                        loc = null;
+                        lastModified = null;
+                    }
+                    // Keep the first loc, image and video extensions nest their own loc elements
+                    case "loc" -> {
+                        String value = reader.getElementText().trim();
+                        if (loc == null) {
+                            loc = value;
+                        }
+                    }
+                    // News sitemaps carry the publication date, prefer it over lastmod
+                    case "publication_date" -> lastModified = reader.getElementText().trim();
+                    case "lastmod" -> {
+                        String value = reader.getElementText().trim();
+                        if (lastModified == null) {
+                            lastModified = value;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                String name = reader.getLocalName();
+                if (name.equals("sitemap") && inSitemap) {
+                    if (loc != null && !loc.isEmpty()) {
+                        // The index is untrusted input, never follow it to another host
+                        if (sitemapHost != null && sitemapHost.equalsIgnoreCase(hostOf(loc))) {
+                            children.add(new SitemapEntry(loc, parseDate(lastModified)));
+                        } else {
+                            logger.debug("Skipping child sitemap on another host: {}", loc);
+                        }
+                    }
+                    inSitemap = false;
+                } else if (name.equals("url") && inUrl) {
+                    if (loc != null && !loc.isEmpty()) {
+                        entries.offer(new SitemapEntry(loc, parseDate(lastModified)));
+                    }
+                    inUrl = false;
+                }
+            }
+        }
+    }
+
+    // .xml.gz files are often served without Content-Encoding, detect them by the gzip magic bytes
+    private static InputStream decompressIfGzipped(InputStream body) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(body);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(buffered);
+        }
+        return buffered;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            return URI.create(url.trim()).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // W3C datetime, either a full timestamp or a plain date
+    private Instant parseDate(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            if (value.length() <= 10) {
+                return LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant();
+            }
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Sitemaps are untrusted input, never resolve DTDs or external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+
+    /**
+     * Keeps the {@code limit} most recently modified entries, whatever order the sitemaps list them in.
+     * Entries without a date count as the oldest.
+     */
+    static class NewestEntries {
+
+        private static final Comparator<SitemapEntry> OLDEST_FIRST =
+                Comparator.comparing(SitemapEntry::getLastModified, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final int limit;
+        private final PriorityQueue<SitemapEntry> heap = new PriorityQueue<>(OLDEST_FIRST);
+
+        NewestEntries(int limit) {
+            this.limit = limit;
+        }
+
+        void offer(SitemapEntry entry) {
+            if (limit <= 0) {
+                return;
+            }
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (OLDEST_FIRST.compare(entry, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        // Newest first
+        List<SitemapEntry> toList() {
+            List<SitemapEntry> list = new ArrayList<>(heap);
+            list.sort(OLDEST_FIRST.reversed());
+            return list;
+        }
+    }
+
+    /**
+     * Child sitemaps waiting to be read, most recently modified first. Undated ones come last,
+     * in the order they were listed.
+     */
+    static class PendingSitemaps {
+
+        private static final Comparator<Pending> NEWEST_FIRST = Comparator
+                .comparing((Pending pending) -> pending.sitemap().getLastModified(),
+                        Comparator.nullsLast(Comparator.reverseOrder()))
+                .thenComparingLong(Pending::sequence);
+
+        private final PriorityQueue<Pending> queue = new PriorityQueue<>(NEWEST_FIRST);
+        private long sequence;
+
+        void add(SitemapEntry sitemap) {
+            queue.add(new Pending(sitemap, sequence++));
+        }
+
+        String poll() {
+            return queue.poll().sitemap().getUrl();
+        }
+
+        boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        private record Pending(SitemapEntry sitemap, long sequence) {
+        }
+    }
+}
@@ -5,6 +5,9 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,4 +27,7 @@ public class ScrapedArticle {
 
     @JsonProperty("url")
     private String url;
+
+    @JsonProperty("images")
+    private List<ScrapedImage> images = new ArrayList<>();
 }
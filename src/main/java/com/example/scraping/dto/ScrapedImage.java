@@ -0,0 +1,24 @@
+package com.example.scraping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScrapedImage {
+
+    @JsonProperty("url")
+    private String url;
+
+    @JsonProperty("alt")
+    private String alt;
+
+    @JsonProperty("width")
+    private Integer width;
+
+    @JsonProperty("height")
+    private Integer height;
+}
@@ -0,0 +1,20 @@
+package com.example.scraping.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SitemapEntry {
+
+    @JsonProperty("url")
+    private String url;
+
+    @JsonProperty("lastmod")
+    private Instant lastModified;
+}
@@ -22,7 +22,7 @@ public class ScrapData {
     @Column(name = "title")
     private String title;
 
-    @Column(name = "text")
+    @Column(name = "text", columnDefinition = "text")
     private String text;
 
     @Column(name = "domain")
@@ -0,0 +1,46 @@
+package com.example.scraping.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "scrap_image", indexes = {
+        @Index(name = "idx_scrap_image_scrap_data_id", columnList = "scrap_data_id"),
+        @Index(name = "idx_scrap_image_md5", columnList = "md5")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScrapImage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "scrap_data_id", nullable = false)
+    private Long scrapDataId;
+
+    // MD5 of the image URL, used to probe each image only once
+    @Column(name = "md5", length = 32)
+    private String md5;
+
+    @Column(name = "url", columnDefinition = "text")
+    private String url;
+
+    @Column(name = "alt", columnDefinition = "text")
+    private String alt;
+
+    @Column(name = "width")
+    private Integer width;
+
+    @Column(name = "height")
+    private Integer height;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "content_length")
+    private Long contentLength;
+}
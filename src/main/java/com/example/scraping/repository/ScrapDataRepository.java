@@ -1,6 +1,7 @@
 package com.example.scraping.repository;
 
 import com.example.scraping.entity.ScrapData;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,6 +25,13 @@ public interface ScrapDataRepository extends JpaRepository<ScrapData, Long> {
     // Check if MD5 exists
     boolean existsByMd5(String md5);
 
+    // All known MD5 hashes, used to warm up the dedup filter
+    @Query("SELECT s.md5 FROM ScrapData s")
+    List<String> findAllMd5();
+
+    // Next page of articles after the given id, for walking the table in bounded chunks
+    List<ScrapData> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
     // Find by URL
     Optional<ScrapData> findByUrl(String url);
 
@@ -0,0 +1,17 @@
+package com.example.scraping.repository;
+
+import com.example.scraping.entity.ScrapImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ScrapImageRepository extends JpaRepository<ScrapImage, Long> {
+
+    // Find images of an article
+    List<ScrapImage> findByScrapDataId(Long scrapDataId);
+
+    // Find all rows sharing the same image URL
+    List<ScrapImage> findByMd5(String md5);
+}
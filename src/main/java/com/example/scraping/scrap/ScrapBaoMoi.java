@@ -1,9 +1,22 @@
 package com.example.scraping.scrap;
 
+import com.example.scraping.discovery.RobotsRulesCache;
+import com.example.scraping.discovery.SitemapDiscovery;
 import com.example.scraping.dto.ScrapedArticle;
+import com.example.scraping.dto.ScrapedImage;
+import com.example.scraping.dto.SitemapEntry;
 import com.example.scraping.entity.ScrapData;
 import com.example.scraping.repository.ScrapDataRepository;
+import com.example.scraping.service.ScrapImageService;
+import com.example.scraping.trace.CrawlPhase;
+import com.example.scraping.trace.CrawlTrace;
+import com.example.scraping.trace.CrawlTraceRecorder;
 import com.example.scraping.utils.TextUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -11,78 +24,190 @@ import org.jsoup.select.Elements;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.net.URI;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class ScrapBaoMoi {
 
     private static final Logger logger = LoggerFactory.getLogger(ScrapBaoMoi.class);
-    private static final String BASE_URL = "https://baomoi.com";
-    private static final int TARGET_ENTRIES = 10000;
-    private static final int DELAY_BETWEEN_REQUESTS = 2000; // 2 seconds
+
+    @Value("${scraping.base-url:https://baomoi.com}")
+    private String baseUrl;
+
+    @Value("${scraping.target-entries:10000}")
+    private int targetEntries;
+
+    @Value("${scraping.delay-between-requests:2000}")
+    private long delayBetweenRequests;
+
+    @Value("${scraping.timeout:15000}")
+    private int timeout;
+
+    @Value("${scraping.discovery.sitemaps-enabled:true}")
+    private boolean sitemapsEnabled;
+
+    // Sent with every request, so robots.txt groups for the product token apply to this crawler
+    @Value("${scraping.user-agent:${scraping.robots.agent:scraping}/1.0}")
+    private String userAgent;
 
     @Autowired
     private ScrapDataRepository scrapDataRepository;
 
+    @Autowired
+    private ScrapImageService scrapImageService;
+
+    @Autowired
+    private CrawlTraceRecorder crawlTraceRecorder;
+
+    @Autowired
+    private RobotsRulesCache robotsRulesCache;
+
+    @Autowired
+    private SitemapDiscovery sitemapDiscovery;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
+
     private final Set<String> processedUrls = new HashSet<>();
-    private final List<ScrapedArticle> scrapedArticles = new ArrayList<>();
+    private String baseHost;
+
+    @PostConstruct
+    public void init() {
+        baseHost = URI.create(baseUrl).getHost();
+    }
 
-    public void startScraping() {
+    // Failures of individual articles are logged and skipped, a failed URL discovery aborts the crawl.
+    // An interrupted crawl throws InterruptedException instead of returning as if it had finished.
+    public void startScraping() throws IOException, InterruptedException {
         logger.info("Starting BaoMoi scraping...");
 
-        try {
-            // Get main categories and article links
-            List<String> articleUrls = collectArticleUrls();
-            logger.info("Collected {} article URLs", articleUrls.size());
+        // Warm up the dedup filter in parallel with URL discovery
+        CompletableFuture<Set<String>> knownHashesFuture = CompletableFuture
+                .supplyAsync(this::loadKnownHashes, taskExecutor)
+                .exceptionally(e -> {
+                    logger.warn("Dedup filter warmup failed, falling back to database lookups: {}", e.getMessage());
+                    return null;
+                });
 
-            // Scrape each article
-            int successCount = 0;
-            int savedCount = 0;
+        // Get main categories and article links
+        List<String> articleUrls = collectArticleUrls();
+        logger.info("Collected {} article URLs", articleUrls.size());
 
-            for (String url : articleUrls) {
-                if (savedCount >= TARGET_ENTRIES) {
-                    break;
-                }
+        Set<String> knownHashes = knownHashesFuture.join();
 
-                try {
-                    ScrapedArticle article = scrapeArticle(url);
-                    if (article != null && TextUtils.isValidContent(article.getText())) {
-
-                        // Check if article already exists in database
-                        if (!scrapDataRepository.existsByMd5(article.getId())) {
-                            // Save to database
-                            ScrapData scrapData = convertToEntity(article);
-                            scrapDataRepository.save(scrapData);
-
-                            scrapedArticles.add(article);
-                            savedCount++;
-                            logger.info("Successfully saved article {} to database: {}", savedCount, article.getTitle());
-                        } else {
-                            logger.info("Article already exists, skipping: {}", article.getTitle());
-                        }
+        // Time from the start of an article fetch until its row is committed
+        Timer fetchToCommit = Timer.builder("scraping.article.fetch-to-commit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        // Scrape each article
+        int successCount = 0;
+        int savedCount = 0;
+
+        for (String url : articleUrls) {
+            if (savedCount >= targetEntries) {
+                break;
+            }
+            checkInterrupted(savedCount);
+
+            CrawlTrace trace = crawlTraceRecorder.start(url);
+            trace.setOutcome("rejected");
 
-                        successCount++;
+            if (!isAllowedByRobots(url)) {
+                trace.finish("disallowed");
+                crawlTraceRecorder.record(trace);
+                continue;
+            }
+
+            try {
+                long fetchStart = System.nanoTime();
+                ScrapedArticle article = scrapeArticle(url, trace);
+                if (article != null && TextUtils.isValidContent(article.getText())) {
+
+                    // Check if article already exists in database
+                    if (!isKnownArticle(knownHashes, article.getId())) {
+                        // Save to database
+                        long persistStart = System.nanoTime();
+                        ScrapData scrapData = convertToEntity(article);
+                        scrapDataRepository.save(scrapData);
+                        if (knownHashes != null) {
+                            knownHashes.add(article.getId());
+                        }
+                        scrapImageService.saveImages(scrapData.getId(), article.getImages());
+                        trace.mark(CrawlPhase.PERSIST, persistStart);
+                        trace.setOutcome("saved");
+                        fetchToCommit.record(System.nanoTime() - fetchStart, TimeUnit.NANOSECONDS);
+
+                        savedCount++;
+                        logger.info("Successfully saved article {} to database: {}", savedCount, article.getTitle());
+                    } else {
+                        trace.setOutcome("duplicate");
+                        logger.info("Article already exists, skipping: {}", article.getTitle());
                     }
 
-                    // Delay between requests to be respectful
-                    Thread.sleep(DELAY_BETWEEN_REQUESTS);
+                    successCount++;
+                }
+
+                trace.finish(trace.getError() != null ? "failed" : trace.getOutcome());
+                crawlTraceRecorder.record(trace);
 
-                } catch (Exception e) {
-                    logger.error("Error scraping article {}: {}", url, e.getMessage());
+                // Delay between requests to be respectful
+                Thread.sleep(requestDelay());
+
+            } catch (InterruptedException e) {
+                if (!trace.isFinished()) {
+                    trace.finish("interrupted");
+                    crawlTraceRecorder.record(trace);
                 }
+                logger.warn("Scraping interrupted, stopping after {} saved articles", savedCount);
+                throw e;
+            } catch (Exception e) {
+                trace.fail(e);
+                trace.finish("failed");
+                crawlTraceRecorder.record(trace);
+                logger.error("Error scraping article {}: {}", url, e.toString());
             }
+        }
+        // An interrupt during the last fetch only sets the flag
+        checkInterrupted(savedCount);
+
+        logger.info("Scraping completed. Total articles processed: {}, Saved to database: {}", successCount, savedCount);
+    }
 
-            saveToDatabase();
+    // Blocking fetches turn an interrupt into an IOException, so the flag is checked between articles
+    private void checkInterrupted(int savedCount) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException("Scraping interrupted after " + savedCount + " saved articles");
+        }
+    }
 
-            logger.info("Scraping completed. Total articles processed: {}, Saved to database: {}", successCount, savedCount);
+    private Set<String> loadKnownHashes() {
+        Set<String> hashes = ConcurrentHashMap.newKeySet();
+        hashes.addAll(scrapDataRepository.findAllMd5());
+        logger.info("Dedup filter warmed up with {} known articles", hashes.size());
+        return hashes;
+    }
 
-        } catch (Exception e) {
-            logger.error("Error during scraping process: {}", e.getMessage(), e);
+    private boolean isKnownArticle(Set<String> knownHashes, String md5) {
+        if (knownHashes != null) {
+            return knownHashes.contains(md5);
         }
+        return scrapDataRepository.existsByMd5(md5);
     }
 
     private ScrapData convertToEntity(ScrapedArticle article) {
@@ -95,12 +220,56 @@ public class ScrapBaoMoi {
         return scrapData;
     }
 
-    private List<String> collectArticleUrls() throws IOException {
+    // Logs at WARN when robots.txt could not be fetched, since then every request is blocked
+    private boolean isAllowedByRobots(String url) {
+        if (robotsRulesCache.isAllowed(url)) {
+            return true;
+        }
+        if (robotsRulesCache.getRules(url).isUnavailable()) {
+            logger.warn("Crawl blocked, robots.txt unavailable, skipping: {}", url);
+        } else {
+            logger.debug("Disallowed by robots.txt, skipping: {}", url);
+        }
+        return false;
+    }
+
+    // Honors the robots.txt Crawl-delay when it is longer than the configured delay
+    private long requestDelay() {
+        return Math.max(delayBetweenRequests, robotsRulesCache.getRules(baseUrl).getCrawlDelayMillis());
+    }
+
+    private List<String> collectArticleUrls() throws IOException, InterruptedException {
         List<String> urls = new ArrayList<>();
 
+        // Prefer sitemaps: a few cheap requests list article URLs with their dates
+        boolean fromSitemaps = false;
+        if (sitemapsEnabled) {
+            List<SitemapEntry> entries = sitemapDiscovery.discover(baseUrl,
+                    robotsRulesCache.getRules(baseUrl).getSitemaps(), targetEntries * 2);
+            for (SitemapEntry entry : entries) {
+                String href = entry.getUrl();
+                // General sitemaps also list category, tag and static pages
+                if (isLikelyArticleUrl(href) && !processedUrls.contains(href)) {
+                    urls.add(href);
+                    processedUrls.add(href);
+                }
+            }
+            fromSitemaps = !urls.isEmpty();
+            logger.info("Collected {} article URLs from sitemaps", urls.size());
+        }
+
+        // Without the main page only sitemap URLs are available
+        if (!isAllowedByRobots(baseUrl)) {
+            if (urls.isEmpty()) {
+                throw new IOException("No article URLs discovered, main page is disallowed by robots.txt");
+            }
+            logger.info("Total collected URLs: {}", urls.size());
+            return urls;
+        }
+
         // Get main page
-        Document mainDoc = Jsoup.connect(BASE_URL)
-                .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
+        Document mainDoc = Jsoup.connect(baseUrl)
+                .userAgent(userAgent)
                 .timeout(10000)
                 .get();
 
@@ -161,7 +330,7 @@ public class ScrapBaoMoi {
 
             // Convert relative URLs to absolute
             if (href.startsWith("/")) {
-                href = BASE_URL + href;
+                href = baseUrl + href;
             }
 
             // Filter for likely article URLs
@@ -174,23 +343,33 @@ public class ScrapBaoMoi {
 
         logger.info("Collected {} potential article URLs from main page", urls.size());
 
+        // Category pages are only needed when no sitemap is available
+        if (fromSitemaps) {
+            logger.info("Total collected URLs: {}", urls.size());
+            return urls;
+        }
+
         // Try to get more articles from category/section pages
         Elements categoryLinks = mainDoc.select("a[href*='/the-loai/'], a[href*='/chuyen-muc/'], a[href*='/category/']");
         logger.info("Found {} category links", categoryLinks.size());
 
         for (Element categoryLink : categoryLinks) {
-            if (urls.size() >= TARGET_ENTRIES * 2) break; // Get more URLs than needed
+            if (urls.size() >= targetEntries * 2) break; // Get more URLs than needed
 
             try {
                 String categoryUrl = categoryLink.attr("href");
                 if (categoryUrl.startsWith("/")) {
-                    categoryUrl = BASE_URL + categoryUrl;
+                    categoryUrl = baseUrl + categoryUrl;
+                }
+
+                if (!isAllowedByRobots(categoryUrl)) {
+                    continue;
                 }
 
                 logger.info("Processing category: {}", categoryUrl);
 
                 Document categoryDoc = Jsoup.connect(categoryUrl)
-                        .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
+                        .userAgent(userAgent)
                         .timeout(10000)
                         .get();
 
@@ -206,7 +385,7 @@ public class ScrapBaoMoi {
                     }
 
                     if (href.startsWith("/")) {
-                        href = BASE_URL + href;
+                        href = baseUrl + href;
                     }
 
                     if (isLikelyArticleUrl(href) && !processedUrls.contains(href)) {
@@ -217,8 +396,10 @@ public class ScrapBaoMoi {
                 }
 
                 logger.info("Added {} articles from category: {}", categoryArticleCount, categoryUrl);
-                Thread.sleep(DELAY_BETWEEN_REQUESTS);
+                Thread.sleep(requestDelay());
 
+            } catch (InterruptedException e) {
+                throw e;
             } catch (Exception e) {
                 logger.warn("Error processing category: {}", e.getMessage());
             }
@@ -228,8 +409,12 @@ public class ScrapBaoMoi {
         return urls;
     }
 
+    private boolean isSameSite(String url) {
+        return url != null && url.contains(baseHost);
+    }
+
     private boolean isLikelyArticleUrl(String url) {
-        if (url == null || !url.contains("baomoi.com")) {
+        if (!isSameSite(url)) {
             return false;
         }
 
@@ -241,7 +426,7 @@ public class ScrapBaoMoi {
                url.contains("/story/") ||
                (url.contains(".html") && !url.contains("/static/")) ||
                // Generic article indicators
-               (url.split("/").length >= 4 &&
+               (hasPathSegment(url) &&
                 !url.contains("/the-loai/") &&
                 !url.contains("/chuyen-muc/") &&
                 !url.contains("/tag/") &&
@@ -249,12 +434,35 @@ public class ScrapBaoMoi {
                 !url.contains("/page/"));
     }
 
-    private ScrapedArticle scrapeArticle(String url) {
+    // True when the URL has a non-empty path after the host, without splitting it
+    private boolean hasPathSegment(String url) {
+        int slashes = 0;
+        for (int i = 0; i < url.length(); i++) {
+            if (url.charAt(i) == '/') {
+                slashes++;
+            } else if (slashes >= 3) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ScrapedArticle scrapeArticle(String url, CrawlTrace trace) {
         try {
-            Document doc = Jsoup.connect(url)
-                    .userAgent("Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36")
-                    .timeout(15000)
-                    .get();
+            // Fetch in steps so connect, download and parse can be timed separately
+            long mark = System.nanoTime();
+            Connection.Response response = Jsoup.connect(url)
+                    .userAgent(userAgent)
+                    .timeout(timeout)
+                    .execute();
+            trace.setStatusCode(response.statusCode());
+            mark = trace.mark(CrawlPhase.CONNECT, mark);
+
+            trace.setBytes(response.bodyAsBytes().length);
+            mark = trace.mark(CrawlPhase.DOWNLOAD, mark);
+
+            Document doc = response.parse();
+            mark = trace.mark(CrawlPhase.PARSE, mark);
 
             // Extract title
             String title = extractTitle(doc);
@@ -262,19 +470,24 @@ public class ScrapBaoMoi {
                 return null;
             }
 
-            // Extract main content
-            String content = extractContent(doc);
+            // Extract main content, collecting images as structured records
+            List<ScrapedImage> images = new ArrayList<>();
+            String content = extractContent(doc, images, trace);
+            mark = trace.mark(CrawlPhase.SELECT, mark);
             if (content.trim().isEmpty()) {
                 return null;
             }
 
             // Clean and process content
             content = TextUtils.cleanText(content);
-            content = TextUtils.processImageLinks(content);
+            mark = trace.mark(CrawlPhase.CLEAN, mark);
             content = TextUtils.anonymizeText(content);
+            mark = trace.mark(CrawlPhase.ANONYMIZE, mark);
 
             // Validate content
-            if (!TextUtils.isValidContent(content)) {
+            boolean valid = TextUtils.isValidContent(content);
+            trace.mark(CrawlPhase.CLEAN, mark);
+            if (!valid) {
                 return null;
             }
 
@@ -285,11 +498,16 @@ public class ScrapBaoMoi {
             article.setText(content);
             article.setDomain("News");
             article.setUrl(url);
+            article.setImages(images);
 
             return article;
 
         } catch (Exception e) {
-            logger.error("Error scraping article {}: {}", url, e.getMessage());
+            if (e instanceof HttpStatusException statusException) {
+                trace.setStatusCode(statusException.getStatusCode());
+            }
+            trace.fail(e);
+            logger.error("Error scraping article {}: {}", url, e.toString());
             return null;
         }
     }
@@ -316,7 +534,7 @@ public class ScrapBaoMoi {
         return doc.title();
     }
 
-    private String extractContent(Document doc) {
+    String extractContent(Document doc, List<ScrapedImage> images, CrawlTrace trace) {
         StringBuilder contentBuilder = new StringBuilder();
 
         // Remove unwanted elements
@@ -339,27 +557,27 @@ public class ScrapBaoMoi {
         for (String selector : contentSelectors) {
             contentElements = doc.select(selector);
             if (!contentElements.isEmpty()) {
+                trace.setTemplate(selector);
                 break;
             }
         }
 
         if (!contentElements.isEmpty()) {
             for (Element contentElement : contentElements) {
+                // Collect every image of the content, including those in figures and other wrappers
+                for (Element img : contentElement.select("img")) {
+                    // Resolved against the page URL, covering relative and protocol-relative sources
+                    String src = img.absUrl("src");
+                    if (!src.isEmpty()) {
+                        images.add(new ScrapedImage(src, img.attr("alt"),
+                                parseDimension(img.attr("width")), parseDimension(img.attr("height"))));
+                        img.replaceWith(doc.createElement("span").text("[img_" + src + "]"));
+                    }
+                }
+
                 // Extract text and preserve image information
                 Elements paragraphs = contentElement.select("p, div.paragraph, .content-paragraph");
                 for (Element paragraph : paragraphs) {
-                    // Handle images within paragraphs
-                    Elements images = paragraph.select("img");
-                    for (Element img : images) {
-                        String src = img.attr("src");
-                        if (!src.isEmpty()) {
-                            if (src.startsWith("/")) {
-                                src = BASE_URL + src;
-                            }
-                            img.replaceWith(doc.createElement("span").text("[img_" + src + "]"));
-                        }
-                    }
-
                     String paragraphText = paragraph.text().trim();
                     if (paragraphText.length() > 20) {
                         contentBuilder.append(paragraphText).append("\n\n");
@@ -379,12 +597,11 @@ public class ScrapBaoMoi {
         return contentBuilder.toString().trim();
     }
 
-    private void saveToDatabase() {
-        List<ScrapData> entities = scrapedArticles.stream()
-                .map(this::convertToEntity)
-                .toList();
-        scrapDataRepository.saveAll(entities);
-        logger.info("Saved {} articles to database", entities.size());
+    private Integer parseDimension(String value) {
+        if (value == null || value.isEmpty() || value.length() > 6 || !value.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Integer.parseInt(value);
     }
 
     private String escapeJson(String input) {
@@ -2,9 +2,11 @@ package com.example.scraping.service;
 
 import com.example.scraping.entity.ScrapData;
 import com.example.scraping.repository.ScrapDataRepository;
+import com.example.scraping.utils.TextUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.security.MessageDigest;
@@ -16,6 +18,8 @@ public class ScrapDataService {
 
     private static final Logger logger = LoggerFactory.getLogger(ScrapDataService.class);
 
+    private static final int VALIDATION_PAGE_SIZE = 200;
+
     @Autowired
     private ScrapDataRepository scrapDataRepository;
 
@@ -33,6 +37,30 @@ public class ScrapDataService {
         scrapDataRepository.saveAll(scrapData);
     }
 
+    public void showDatabaseStats() {
+        long total = scrapDataRepository.count();
+        long news = scrapDataRepository.countByDomain((short) 1);
+        logger.info("Database stats - total articles: {}, news articles: {}", total, news);
+    }
+
+    // Walks the table by id in pages, so only one page of article texts is held in memory
+    public void validateArticleContent() {
+        int invalidCount = 0;
+        long lastId = 0;
+        List<ScrapData> page;
+        do {
+            page = scrapDataRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, VALIDATION_PAGE_SIZE));
+            for (ScrapData scrapData : page) {
+                if (!TextUtils.isValidContent(scrapData.getText())) {
+                    invalidCount++;
+                    logger.warn("Article {} does not meet content requirements: {}", scrapData.getId(), scrapData.getUrl());
+                }
+                lastId = scrapData.getId();
+            }
+        } while (page.size() == VALIDATION_PAGE_SIZE);
+        logger.info("Content validation completed, {} invalid articles found", invalidCount);
+    }
+
     private String generateMd5Hash(String input) {
         if (input == null) {
             return null;
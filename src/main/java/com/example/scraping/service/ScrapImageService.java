@@ -0,0 +1,243 @@
+package com.example.scraping.service;
+
+import com.example.scraping.dto.ScrapedImage;
+import com.example.scraping.entity.ScrapImage;
+import com.example.scraping.repository.ScrapImageRepository;
+import com.example.scraping.utils.TextUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+public class ScrapImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrapImageService.class);
+
+    @Value("${scraping.media.enabled:false}")
+    private boolean mediaFetchEnabled;
+
+    @Value("${scraping.media.threads:2}")
+    private int mediaFetchThreads;
+
+    @Value("${scraping.media.queue-capacity:500}")
+    private int mediaFetchQueueCapacity;
+
+    @Value("${scraping.timeout:15000}")
+    private int timeout;
+
+    @Value("${scraping.user-agent:${scraping.robots.agent:scraping}/1.0}")
+    private String userAgent;
+
+    @Autowired
+    private ScrapImageRepository scrapImageRepository;
+
+    // URL hashes already queued for probing during this run
+    private final Set<String> probedHashes = ConcurrentHashMap.newKeySet();
+
+    // Probe results by URL hash, applied to rows saved after the probe finished
+    private final Map<String, ProbeResult> probeResults = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor mediaFetchExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (!mediaFetchEnabled) {
+            return;
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // Bounded queue: a full queue rejects probes instead of blocking the crawl
+        mediaFetchExecutor = new ThreadPoolExecutor(
+                mediaFetchThreads, mediaFetchThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(mediaFetchQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "media-fetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (mediaFetchExecutor != null) {
+            mediaFetchExecutor.shutdownNow();
+        }
+    }
+
+    public void saveImages(Long scrapDataId, List<ScrapedImage> images) {
+        if (images == null || images.isEmpty()) {
+            return;
+        }
+
+        List<ScrapImage> entities = images.stream()
+                .map(image -> toEntity(scrapDataId, image))
+                .toList();
+
+        List<ScrapImage> unprobed = new ArrayList<>();
+        for (ScrapImage entity : entities) {
+            ProbeResult result = probeResults.get(entity.getMd5());
+            if (result != null) {
+                applyProbeResult(entity, result);
+            } else {
+                unprobed.add(entity);
+            }
+        }
+        scrapImageRepository.saveAll(entities);
+
+        if (mediaFetchExecutor == null) {
+            return;
+        }
+
+        List<ScrapImage> lateResults = new ArrayList<>();
+        for (ScrapImage entity : unprobed) {
+            String md5 = entity.getMd5();
+            ProbeResult result = probeResults.get(md5);
+            if (result != null) {
+                // The probe finished while this row was being saved and did not see it
+                applyProbeResult(entity, result);
+                lateResults.add(entity);
+            } else if (probedHashes.add(md5)) {
+                submitProbe(entity.getUrl(), md5);
+            }
+        }
+        if (!lateResults.isEmpty()) {
+            scrapImageRepository.saveAll(lateResults);
+        }
+    }
+
+    private void submitProbe(String url, String md5) {
+        try {
+            mediaFetchExecutor.execute(() -> probe(url, md5));
+        } catch (RejectedExecutionException e) {
+            // Queue is full, let a later article with the same image try again
+            probedHashes.remove(md5);
+            logger.debug("Media fetch queue full, dropping probe for {}", url);
+        }
+    }
+
+    private ScrapImage toEntity(Long scrapDataId, ScrapedImage image) {
+        ScrapImage scrapImage = new ScrapImage();
+        scrapImage.setScrapDataId(scrapDataId);
+        scrapImage.setMd5(TextUtils.generateMD5(image.getUrl()));
+        scrapImage.setUrl(image.getUrl());
+        scrapImage.setAlt(image.getAlt());
+        scrapImage.setWidth(image.getWidth());
+        scrapImage.setHeight(image.getHeight());
+        return scrapImage;
+    }
+
+    private void probe(String url, String md5) {
+        try {
+            Connection.Response head = Jsoup.connect(url)
+                    .userAgent(userAgent)
+                    .method(Connection.Method.HEAD)
+                    .ignoreContentType(true)
+                    .timeout(timeout)
+                    .execute();
+
+            String contentType = head.contentType();
+
+            boolean missingDimensions = scrapImageRepository.findByMd5(md5).stream()
+                    .anyMatch(ScrapImageService::isMissingDimensions);
+
+            int[] dimensions = null;
+            if (missingDimensions && contentType != null && contentType.startsWith("image/")) {
+                dimensions = probeDimensions(url);
+            }
+
+            ProbeResult result = new ProbeResult(contentType, parseContentLength(head.header("Content-Length")),
+                    dimensions != null ? dimensions[0] : null,
+                    dimensions != null ? dimensions[1] : null);
+
+            // Publish before loading the rows, so rows saved from now on pick the result up themselves
+            probeResults.put(md5, result);
+            List<ScrapImage> rows = scrapImageRepository.findByMd5(md5);
+            for (ScrapImage row : rows) {
+                applyProbeResult(row, result);
+            }
+            scrapImageRepository.saveAll(rows);
+
+        } catch (Exception e) {
+            logger.debug("Error probing image {}: {}", url, e.getMessage());
+        }
+    }
+
+    // A malformed header only loses the length, not the rest of the probe result
+    private static Long parseContentLength(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            long length = Long.parseLong(value.trim());
+            return length >= 0 ? length : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void applyProbeResult(ScrapImage row, ProbeResult result) {
+        row.setContentType(result.contentType());
+        row.setContentLength(result.contentLength());
+        if (isMissingDimensions(row) && result.width() != null) {
+            row.setWidth(result.width());
+            row.setHeight(result.height());
+        }
+    }
+
+    // Dimensions are only filled in when the page gave neither of them
+    private static boolean isMissingDimensions(ScrapImage row) {
+        return row.getWidth() == null && row.getHeight() == null;
+    }
+
+    // Reads only the image header to get its dimensions
+    private int[] probeDimensions(String url) throws Exception {
+        Connection.Response response = Jsoup.connect(url)
+                .userAgent(userAgent)
+                .ignoreContentType(true)
+                .timeout(timeout)
+                .execute();
+
+        try (InputStream body = response.bodyStream();
+             ImageInputStream input = ImageIO.createImageInputStream(body)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return new int[]{reader.getWidth(0), reader.getHeight(0)};
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private record ProbeResult(String contentType, Long contentLength, Integer width, Integer height) {
+    }
+}
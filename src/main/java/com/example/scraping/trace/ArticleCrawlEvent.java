@@ -0,0 +1,62 @@
+package com.example.scraping.trace;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name("com.example.scraping.ArticleCrawl")
+@Label("Article Crawl")
+@Category("Scraping")
+@Description("Per-phase timings of a single article fetch")
+class ArticleCrawlEvent extends Event {
+
+    @Label("URL")
+    String url;
+
+    @Label("Template")
+    String template;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Status Code")
+    int statusCode;
+
+    @Label("Bytes")
+    long bytes;
+
+    @Label("Connect")
+    @Timespan
+    long connect;
+
+    @Label("Download")
+    @Timespan
+    long download;
+
+    @Label("Parse")
+    @Timespan
+    long parse;
+
+    @Label("Select")
+    @Timespan
+    long select;
+
+    @Label("Clean")
+    @Timespan
+    long clean;
+
+    @Label("Anonymize")
+    @Timespan
+    long anonymize;
+
+    @Label("Persist")
+    @Timespan
+    long persist;
+
+    @Label("Total")
+    @Timespan
+    long total;
+}
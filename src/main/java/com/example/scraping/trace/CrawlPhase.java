@@ -0,0 +1,11 @@
+package com.example.scraping.trace;
+
+public enum CrawlPhase {
+    CONNECT,    // DNS, connect and time to response headers
+    DOWNLOAD,   // Reading the response body
+    PARSE,      // Building the DOM
+    SELECT,     // Title and content selection
+    CLEAN,      // Text cleaning and validation
+    ANONYMIZE,  // Personal data masking
+    PERSIST     // Database writes for the article and its images
+}
@@ -0,0 +1,84 @@
+package com.example.scraping.trace;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Timings of a single article fetch, one entry per {@link CrawlPhase}.
+ */
+@Getter
+@Setter
+public class CrawlTrace {
+
+    private final String url;
+    private final long startedAt = System.currentTimeMillis();
+    @Getter(AccessLevel.NONE)
+    private final long startNanos = System.nanoTime();
+    @Getter(AccessLevel.NONE)
+    private final EnumMap<CrawlPhase, Long> phaseNanos = new EnumMap<>(CrawlPhase.class);
+
+    // JFR event begun when the trace starts, null when JFR events are disabled
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    ArticleCrawlEvent event;
+
+    // Content selector that matched the page, identifies the page template
+    private String template;
+    private int statusCode;
+    private long bytes;
+    private String outcome;
+    private String error;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long totalNanos;
+
+    public CrawlTrace(String url) {
+        this.url = url;
+    }
+
+    // Records the time spent in a phase since the given mark and returns a new mark
+    public long mark(CrawlPhase phase, long sinceNanos) {
+        long now = System.nanoTime();
+        phaseNanos.merge(phase, now - sinceNanos, Long::sum);
+        return now;
+    }
+
+    public void fail(Exception e) {
+        this.error = e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    public void finish(String outcome) {
+        this.outcome = outcome;
+        this.totalNanos = System.nanoTime() - startNanos;
+    }
+
+    @JsonIgnore
+    public boolean isFinished() {
+        return totalNanos > 0;
+    }
+
+    public long getPhaseNanos(CrawlPhase phase) {
+        return phaseNanos.getOrDefault(phase, 0L);
+    }
+
+    @JsonIgnore
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public double getTotalMillis() {
+        return totalNanos / 1_000_000.0;
+    }
+
+    public Map<CrawlPhase, Double> getPhaseMillis() {
+        Map<CrawlPhase, Double> millis = new LinkedHashMap<>();
+        phaseNanos.forEach((phase, nanos) -> millis.put(phase, nanos / 1_000_000.0));
+        return millis;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.scraping.trace;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Exposes the slowest recently crawled pages at {@code /actuator/crawltrace?limit=N}.
+ */
+@Component
+@Endpoint(id = "crawltrace")
+public class CrawlTraceEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    @Autowired
+    private CrawlTraceRecorder crawlTraceRecorder;
+
+    @ReadOperation
+    public Map<String, Object> slowestPages(@Nullable Integer limit) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("recorded", crawlTraceRecorder.getRecordedCount());
+        int capacity = crawlTraceRecorder.getCapacity();
+        int clampedLimit = Math.min(Math.max(limit != null ? limit : DEFAULT_LIMIT, 1), capacity);
+        result.put("slowest", crawlTraceRecorder.topSlowest(clampedLimit));
+        return result;
+    }
+}
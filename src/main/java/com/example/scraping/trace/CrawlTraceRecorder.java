@@ -0,0 +1,107 @@
+package com.example.scraping.trace;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent crawl traces in a fixed-size ring buffer and optionally
+ * emits one JFR event per article.
+ */
+@Component
+public class CrawlTraceRecorder {
+
+    @Value("${scraping.trace.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scraping.trace.capacity:1000}")
+    private int capacity;
+
+    @Value("${scraping.trace.jfr-enabled:false}")
+    private boolean jfrEnabled;
+
+    private AtomicReferenceArray<CrawlTrace> buffer;
+    private final AtomicLong cursor = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        buffer = new AtomicReferenceArray<>(Math.max(capacity, 1));
+    }
+
+    public CrawlTrace start(String url) {
+        CrawlTrace trace = new CrawlTrace(url);
+        if (enabled && jfrEnabled) {
+            // Begin now so the event spans the whole article fetch
+            ArticleCrawlEvent event = new ArticleCrawlEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                trace.event = event;
+            }
+        }
+        return trace;
+    }
+
+    public void record(CrawlTrace trace) {
+        if (!enabled) {
+            return;
+        }
+
+        int slot = (int) (cursor.getAndIncrement() % buffer.length());
+        buffer.set(slot, trace);
+
+        if (trace.event != null) {
+            emitEvent(trace.event, trace);
+        }
+    }
+
+    public List<CrawlTrace> topSlowest(int limit) {
+        List<CrawlTrace> traces = new ArrayList<>(buffer.length());
+        for (int i = 0; i < buffer.length(); i++) {
+            CrawlTrace trace = buffer.get(i);
+            if (trace != null) {
+                traces.add(trace);
+            }
+        }
+
+        return traces.stream()
+                .sorted(Comparator.comparingLong(CrawlTrace::getTotalNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    public int getCapacity() {
+        return buffer.length();
+    }
+
+    public long getRecordedCount() {
+        return cursor.get();
+    }
+
+    private void emitEvent(ArticleCrawlEvent event, CrawlTrace trace) {
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+
+        event.url = trace.getUrl();
+        event.template = trace.getTemplate();
+        event.outcome = trace.getOutcome();
+        event.statusCode = trace.getStatusCode();
+        event.bytes = trace.getBytes();
+        event.connect = trace.getPhaseNanos(CrawlPhase.CONNECT);
+        event.download = trace.getPhaseNanos(CrawlPhase.DOWNLOAD);
+        event.parse = trace.getPhaseNanos(CrawlPhase.PARSE);
+        event.select = trace.getPhaseNanos(CrawlPhase.SELECT);
+        event.clean = trace.getPhaseNanos(CrawlPhase.CLEAN);
+        event.anonymize = trace.getPhaseNanos(CrawlPhase.ANONYMIZE);
+        event.persist = trace.getPhaseNanos(CrawlPhase.PERSIST);
+        event.total = trace.getTotalNanos();
+        event.commit();
+    }
+}
@@ -102,10 +102,4 @@ public class TextUtils {
 
         return true;
     }
-
-    public static String processImageLinks(String text) {
-        // Replace image tags with the required format
-        text = text.replaceAll("<img[^>]*src=[\"']([^\"']+)[\"'][^>]*>", "[img_$1]");
-        return text;
-    }
 }
@@ -0,0 +1,32 @@
+-- One-off schema script for the scraping tables, it is not applied by the application.
+-- Run it once per database before deploying the image records:
+--   psql -h <host> -U <user> -d <database> -f src/main/resources/db/postgresql/schema.sql
+-- Every statement is idempotent, existing tables and indexes are left untouched.
+
+CREATE TABLE IF NOT EXISTS scrap_data (
+    id     BIGSERIAL PRIMARY KEY,
+    md5    VARCHAR(32),
+    title  TEXT,
+    text   TEXT,
+    domain SMALLINT,
+    url    TEXT
+);
+
+CREATE TABLE IF NOT EXISTS scrap_image (
+    id             BIGSERIAL PRIMARY KEY,
+    scrap_data_id  BIGINT NOT NULL,
+    md5            VARCHAR(32),
+    url            TEXT,
+    alt            TEXT,
+    width          INTEGER,
+    height         INTEGER,
+    content_type   VARCHAR(255),
+    content_length BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_scrap_image_scrap_data_id ON scrap_image (scrap_data_id);
+CREATE INDEX IF NOT EXISTS idx_scrap_image_md5 ON scrap_image (md5);
+
+-- Optional, only where scrap_data.id is a primary key or unique:
+-- ALTER TABLE scrap_image ADD CONSTRAINT fk_scrap_image_scrap_data
+--     FOREIGN KEY (scrap_data_id) REFERENCES scrap_data (id) ON DELETE CASCADE;
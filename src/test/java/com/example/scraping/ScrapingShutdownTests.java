@@ -0,0 +1,44 @@
+package com.example.scraping;
+
+import com.example.scraping.fixture.ReplayFixtureServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Closes the application while the startup crawl job is still running. Uses its own context,
+ * since closing the cached test context would break the other tests.
+ */
+class ScrapingShutdownTests {
+
+    @Test
+    void shutdownInterruptsRunningCrawl() throws InterruptedException {
+        try (ReplayFixtureServer server = new ReplayFixtureServer(50, 200L, 0.0, 0.0, 11L).start()) {
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--scraping.enabled=true",
+                            "--scraping.base-url=" + server.getBaseUrl(),
+                            "--spring.datasource.url=jdbc:h2:mem:scraping-shutdown;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH");
+            Scraping scraping = context.getBean(Scraping.class);
+
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (server.getServedCount() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(scraping.getState()).isEqualTo(Scraping.State.RUNNING);
+
+            // Closing the context interrupts the crawl and waits for the job to stop
+            long closeStart = System.currentTimeMillis();
+            context.close();
+
+            assertThat(scraping.getState()).isEqualTo(Scraping.State.INTERRUPTED);
+            assertThat(scraping.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+            assertThat(server.getServedCount()).isLessThan(50);
+            assertThat(System.currentTimeMillis() - closeStart).isLessThan(5_000);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.scraping;
+
+import com.example.scraping.fixture.ReplayFixtureServer;
+import com.example.scraping.scrap.ScrapBaoMoi;
+import com.example.scraping.service.ScrapDataService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Runs the startup crawl job against the replay fixture server.
+ */
+@SpringBootTest(properties = {
+        "scraping.enabled=true",
+        "spring.datasource.url=jdbc:h2:mem:scraping-job;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH"
+})
+class ScrapingTests {
+
+    // Slow enough that the crawl is still running when the context is handed to the test
+    private static final ReplayFixtureServer server = new ReplayFixtureServer(20, 100L, 0.0, 0.0, 7L).start();
+
+    @Autowired
+    private Scraping scraping;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @DynamicPropertySource
+    static void scrapingProperties(DynamicPropertyRegistry registry) {
+        registry.add("scraping.base-url", server::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void crawlRunsInBackgroundAfterApplicationIsReady() throws InterruptedException {
+        // The context is ready and serving probes while the crawl is still in progress
+        assertThat(scraping.getState()).isIn(Scraping.State.PENDING, Scraping.State.RUNNING);
+        assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+        assertThat(applicationAvailability.getLivenessState()).isEqualTo(LivenessState.CORRECT);
+        assertThat(scraping.health().getStatus()).isEqualTo(Status.UP);
+
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (scraping.getState() != Scraping.State.COMPLETED && scraping.getState() != Scraping.State.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        Health health = scraping.health();
+        assertThat(scraping.getState()).isEqualTo(Scraping.State.COMPLETED);
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("state", Scraping.State.COMPLETED);
+        assertThat(server.getServedCount()).isEqualTo(20);
+    }
+
+    @Test
+    void failedDiscoveryMarksCrawlFailed() throws Exception {
+        ScrapBaoMoi scrapBaoMoi = mock(ScrapBaoMoi.class);
+        doThrow(new IOException("Connection refused")).when(scrapBaoMoi).startScraping();
+
+        Scraping failingScraping = new Scraping();
+        ReflectionTestUtils.setField(failingScraping, "scrapBaoMoi", scrapBaoMoi);
+        ReflectionTestUtils.setField(failingScraping, "scrapDataService", mock(ScrapDataService.class));
+        ReflectionTestUtils.setField(failingScraping, "taskExecutor", new SimpleAsyncTaskExecutor());
+
+        failingScraping.run();
+
+        Health health = failingScraping.health();
+        assertThat(failingScraping.getState()).isEqualTo(Scraping.State.FAILED);
+        assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+        assertThat(health.getDetails()).containsEntry("error", "Connection refused");
+    }
+
+    @Test
+    void interruptedCrawlSkipsFinalStats() throws Exception {
+        ScrapBaoMoi scrapBaoMoi = mock(ScrapBaoMoi.class);
+        doThrow(new InterruptedException("Scraping interrupted after 3 saved articles")).when(scrapBaoMoi).startScraping();
+        ScrapDataService scrapDataService = mock(ScrapDataService.class);
+
+        Scraping interruptedScraping = new Scraping();
+        ReflectionTestUtils.setField(interruptedScraping, "scrapBaoMoi", scrapBaoMoi);
+        ReflectionTestUtils.setField(interruptedScraping, "scrapDataService", scrapDataService);
+        // Runs the initial stats on the calling thread
+        ReflectionTestUtils.setField(interruptedScraping, "taskExecutor", new TaskExecutorAdapter(Runnable::run));
+
+        interruptedScraping.run();
+
+        // The job restores the interrupt flag for its executor thread
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(interruptedScraping.getState()).isEqualTo(Scraping.State.INTERRUPTED);
+        assertThat(interruptedScraping.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+        // Only the initial stats ran, the final stats and validation are skipped
+        verify(scrapDataService, times(1)).showDatabaseStats();
+        verify(scrapDataService, never()).validateArticleContent();
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.scraping.discovery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RobotsRulesTests {
+
+    @Test
+    void longestMatchWins() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /news/
+                Allow: /news/public/
+                """, "scraping");
+
+        assertThat(rules.isAllowed("/news/private")).isFalse();
+        assertThat(rules.isAllowed("/news/public/article")).isTrue();
+        assertThat(rules.isAllowed("/sports/")).isTrue();
+    }
+
+    @Test
+    void allowWinsTies() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /page
+                Allow: /page
+                """, "scraping");
+
+        assertThat(rules.isAllowed("/page")).isTrue();
+    }
+
+    @Test
+    void supportsWildcardAndEndAnchor() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow: /*/tag/
+                Disallow: /*.pdf$
+                """, "scraping");
+
+        assertThat(rules.isAllowed("/c/tag/politics")).isFalse();
+        assertThat(rules.isAllowed("/files/report.pdf")).isFalse();
+        assertThat(rules.isAllowed("/files/report.pdf.html")).isTrue();
+        assertThat(rules.isAllowed("/tag/")).isTrue();
+    }
+
+    @Test
+    void emptyDisallowAllowsEverything() {
+        RobotsRules rules = RobotsRules.parse("""
+                User-agent: *
+                Disallow:
+                """, "scraping");
+
+        assertThat(rules.isAllowed("/anything")).isTrue();
+    }
+
+    @Test
+    void specificAgentGroupReplacesWildcardGroup() {
+        String content = """
+                User-agent: *
+                Disallow: /
+                Crawl-delay: 10
+
+                User-agent: Scraping
+                Disallow: /private/
+                Crawl-delay: 1.5
+                """;
+
+        RobotsRules rules = RobotsRules.parse(content, "scraping");
+        assertThat(rules.isAllowed("/news/1.epi")).isTrue();
+        assertThat(rules.isAllowed("/private/1.epi")).isFalse();
+        assertThat(rules.getCrawlDelayMillis()).isEqualTo(1500);
+    }
+
+    @Test
+    void agentTokenMustMatchExactly() {
+        String content = """
+                User-agent: scrap
+                Disallow: /
+
+                User-agent: *
+                Disallow: /private/
+                """;
+
+        RobotsRules rules = RobotsRules.parse(content, "scraping");
+        assertThat(rules.isAllowed("/news/1.epi")).isTrue();
+        assertThat(rules.isAllowed("/private/1.epi")).isFalse();
+    }
+
+    @Test
+    void consecutiveUserAgentLinesShareOneGroup() {
+        RobotsRules rules = RobotsRules.parse("""
+                # comment line
+                User-agent: googlebot
+                User-agent: scraping
+                Disallow: /search # trailing comment
+                """, "scraping");
+
+        assertThat(rules.isAllowed("/search?q=x")).isFalse();
+        assertThat(rules.isAllowed("/news")).isTrue();
+    }
+
+    @Test
+    void collectsSitemapsOutsideGroups() {
+        RobotsRules rules = RobotsRules.parse("""
+                Sitemap: https://example.com/news-sitemap.xml
+                User-agent: *
+                Disallow:
+                Sitemap: https://example.com/sitemap.xml
+                """, "scraping");
+
+        assertThat(rules.getSitemaps())
+                .containsExactly("https://example.com/news-sitemap.xml", "https://example.com/sitemap.xml");
+    }
+
+    @Test
+    void unavailableRulesDisallowEverything() {
+        assertThat(RobotsRules.unavailable().isAllowed("/")).isFalse();
+        assertThat(RobotsRules.unavailable().isUnavailable()).isTrue();
+        assertThat(RobotsRules.allowAll().isAllowed("/")).isTrue();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.scraping.discovery;
+
+import com.example.scraping.dto.SitemapEntry;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SitemapDiscoveryTests {
+
+    private static final String SITEMAP_URL = "https://example.com/sitemap.xml";
+
+    private final SitemapDiscovery sitemapDiscovery = new SitemapDiscovery();
+
+    @Test
+    void readsUrlsAndPrefersPublicationDate() throws Exception {
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9"
+                        xmlns:news="http://www.google.com/schemas/sitemap-news/0.9"
+                        xmlns:image="http://www.google.com/schemas/sitemap-image/1.1">
+                  <url>
+                    <loc> https://example.com/c/1.epi </loc>
+                    <lastmod>2024-02-01</lastmod>
+                    <image:image><image:loc>https://cdn.example.com/1.jpg</image:loc></image:image>
+                    <news:news><news:publication_date>2024-01-03T08:00:00+07:00</news:publication_date></news:news>
+                  </url>
+                  <url>
+                    <loc>https://example.com/c/2.epi</loc>
+                    <lastmod>2024-01-05</lastmod>
+                  </url>
+                  <url>
+                    <loc>https://example.com/c/3.epi</loc>
+                  </url>
+                </urlset>
+                """;
+
+        List<SitemapEntry> entries = parse(stream(xml), new SitemapDiscovery.PendingSitemaps(), 10);
+
+        assertThat(entries).containsExactly(
+                new SitemapEntry("https://example.com/c/2.epi", Instant.parse("2024-01-05T00:00:00Z")),
+                new SitemapEntry("https://example.com/c/1.epi", Instant.parse("2024-01-03T01:00:00Z")),
+                new SitemapEntry("https://example.com/c/3.epi", null));
+    }
+
+    @Test
+    void queuesChildSitemapsOfAnIndexNewestFirst() throws Exception {
+        String xml = """
+                <sitemapindex xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <sitemap><loc>https://example.com/sitemap-undated.xml</loc></sitemap>
+                  <sitemap><loc>https://example.com/sitemap-2023.xml</loc><lastmod>2023-12-31</lastmod></sitemap>
+                  <sitemap><loc>https://example.com/sitemap-2024.xml.gz</loc><lastmod>2024-12-31T10:00:00+07:00</lastmod></sitemap>
+                  <sitemap><loc>https://example.com/sitemap-other.xml</loc></sitemap>
+                </sitemapindex>
+                """;
+
+        SitemapDiscovery.PendingSitemaps children = new SitemapDiscovery.PendingSitemaps();
+        List<SitemapEntry> entries = parse(stream(xml), children, 10);
+
+        assertThat(entries).isEmpty();
+        assertThat(drain(children)).containsExactly(
+                "https://example.com/sitemap-2024.xml.gz",
+                "https://example.com/sitemap-2023.xml",
+                "https://example.com/sitemap-undated.xml",
+                "https://example.com/sitemap-other.xml");
+    }
+
+    @Test
+    void skipsChildSitemapsOnOtherHosts() throws Exception {
+        String xml = """
+                <sitemapindex xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <sitemap><loc>https://example.com/sitemap-1.xml</loc></sitemap>
+                  <sitemap><loc>https://attacker.example.org/sitemap.xml</loc></sitemap>
+                  <sitemap><loc>http://169.254.169.254/latest/meta-data/</loc></sitemap>
+                  <sitemap><loc>not a url</loc></sitemap>
+                </sitemapindex>
+                """;
+
+        SitemapDiscovery.PendingSitemaps children = new SitemapDiscovery.PendingSitemaps();
+        parse(stream(xml), children, 10);
+
+        assertThat(drain(children)).containsExactly("https://example.com/sitemap-1.xml");
+    }
+
+    @Test
+    void spendsTheFileBudgetOnTheNewestChildSitemaps() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        List<String> requested = new CopyOnWriteArrayList<>();
+        Set<String> userAgents = ConcurrentHashMap.newKeySet();
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+
+        // A monthly index listed oldest first, each month holding one article
+        StringBuilder index = new StringBuilder("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">");
+        for (int month = 1; month <= 6; month++) {
+            index.append("<sitemap><loc>").append(baseUrl).append("/sitemap-2024-0").append(month).append(".xml</loc>")
+                    .append("<lastmod>2024-0").append(month).append("-28</lastmod></sitemap>");
+        }
+        index.append("</sitemapindex>");
+
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requested.add(path);
+            userAgents.add(String.valueOf(exchange.getRequestHeaders().getFirst("User-Agent")));
+            String body = path.equals("/sitemap-index.xml")
+                    ? index.toString()
+                    : "<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\"><url><loc>" + baseUrl + "/c/"
+                    + path.substring("/sitemap-".length(), path.length() - ".xml".length()) + ".epi</loc></url></urlset>";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+
+        try {
+            ReflectionTestUtils.setField(sitemapDiscovery, "maxFiles", 3);
+            ReflectionTestUtils.setField(sitemapDiscovery, "timeout", 5000);
+            ReflectionTestUtils.setField(sitemapDiscovery, "userAgent", "scraping/1.0");
+
+            List<SitemapEntry> entries = sitemapDiscovery.discover(baseUrl, List.of(baseUrl + "/sitemap-index.xml"), 10);
+
+            assertThat(requested).containsExactly("/sitemap-index.xml", "/sitemap-2024-06.xml", "/sitemap-2024-05.xml");
+            assertThat(entries).extracting(SitemapEntry::getUrl)
+                    .containsExactlyInAnyOrder(baseUrl + "/c/2024-06.epi", baseUrl + "/c/2024-05.epi");
+            assertThat(userAgents).containsExactly("scraping/1.0");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void readsGzippedSitemaps() throws Exception {
+        String xml = """
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <url><loc>https://example.com/c/1.epi</loc><lastmod>2024-01-01</lastmod></url>
+                </urlset>
+                """;
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(xml.getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<SitemapEntry> entries = parse(new ByteArrayInputStream(compressed.toByteArray()), new SitemapDiscovery.PendingSitemaps(), 10);
+
+        assertThat(entries).extracting(SitemapEntry::getUrl).containsExactly("https://example.com/c/1.epi");
+    }
+
+    @Test
+    void keepsNewestEntriesWhenOlderOnesComeFirst() throws Exception {
+        SitemapDiscovery.NewestEntries entries = new SitemapDiscovery.NewestEntries(2);
+        SitemapDiscovery.PendingSitemaps children = new SitemapDiscovery.PendingSitemaps();
+
+        sitemapDiscovery.parse(stream("""
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <url><loc>https://example.com/old-1</loc><lastmod>2020-01-01</lastmod></url>
+                  <url><loc>https://example.com/old-2</loc><lastmod>2020-01-02</lastmod></url>
+                </urlset>
+                """), SITEMAP_URL, entries, children);
+        sitemapDiscovery.parse(stream("""
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <url><loc>https://example.com/undated</loc></url>
+                  <url><loc>https://example.com/new-1</loc><lastmod>2024-01-01</lastmod></url>
+                  <url><loc>https://example.com/new-2</loc><lastmod>2024-01-02</lastmod></url>
+                </urlset>
+                """), SITEMAP_URL, entries, children);
+
+        assertThat(entries.toList()).extracting(SitemapEntry::getUrl)
+                .containsExactly("https://example.com/new-2", "https://example.com/new-1");
+    }
+
+    @Test
+    void ignoresDoctypeEntities() throws Exception {
+        String xml = """
+                <?xml version="1.0"?>
+                <!DOCTYPE urlset [<!ENTITY xxe SYSTEM "file:///etc/passwd">]>
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <url><loc>https://example.com/c/1.epi</loc></url>
+                </urlset>
+                """;
+
+        List<SitemapEntry> entries = parse(stream(xml), new SitemapDiscovery.PendingSitemaps(), 10);
+
+        assertThat(entries).extracting(SitemapEntry::getUrl).containsExactly("https://example.com/c/1.epi");
+    }
+
+    private List<SitemapEntry> parse(InputStream body, SitemapDiscovery.PendingSitemaps children, int maxUrls) throws Exception {
+        SitemapDiscovery.NewestEntries entries = new SitemapDiscovery.NewestEntries(maxUrls);
+        sitemapDiscovery.parse(body, SITEMAP_URL, entries, children);
+        return entries.toList();
+    }
+
+    private static List<String> drain(SitemapDiscovery.PendingSitemaps children) {
+        List<String> urls = new ArrayList<>();
+        while (!children.isEmpty()) {
+            urls.add(children.poll());
+        }
+        return urls;
+    }
+
+    private static InputStream stream(String xml) throws IOException {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
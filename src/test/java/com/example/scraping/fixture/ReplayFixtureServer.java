@@ -0,0 +1,248 @@
+package com.example.scraping.fixture;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded HTTP server replaying the recorded BaoMoi corpus from {@code src/test/resources/fixtures/baomoi}.
+ * <p>
+ * The index page and the news sitemap list {@code articleCount} links of the form {@code /c/{n}.epi}, each
+ * served from the corpus round-robin. Article responses can be slowed down and faulted with server errors
+ * or 429s. The sitemap also lists one page under {@code /private/}, which robots.txt disallows for the
+ * {@code scraping} agent, and one tag page. robots.txt disallows everything for other agents.
+ */
+public class ReplayFixtureServer implements AutoCloseable {
+
+    private static final String CORPUS_ROOT = "/fixtures/baomoi/";
+    private static final String[] ARTICLE_FILES = {"article-1.html", "article-2.html", "article-3.html"};
+    private static final String ARTICLE_LINKS_MARKER = "<!-- ARTICLE_LINKS -->";
+
+    private final int articleCount;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final double tooManyRequestsRate;
+    private final Random random;
+
+    private final String indexPage;
+    private final List<byte[]> articles = new ArrayList<>();
+
+    private final AtomicInteger servedCount = new AtomicInteger();
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final AtomicInteger tooManyRequestsCount = new AtomicInteger();
+    private final AtomicInteger disallowedRequestCount = new AtomicInteger();
+    private final AtomicInteger tagPageRequestCount = new AtomicInteger();
+    private final Set<String> userAgents = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public ReplayFixtureServer(int articleCount, long latencyMillis, double errorRate, double tooManyRequestsRate, long seed) {
+        this.articleCount = articleCount;
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.tooManyRequestsRate = tooManyRequestsRate;
+        this.random = new Random(seed);
+
+        this.indexPage = readResource("index.html");
+        for (String file : ARTICLE_FILES) {
+            articles.add(readResource("articles/" + file).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public ReplayFixtureServer start() {
+        try {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start replay fixture server", e);
+        }
+        server.createContext("/", this::handle);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int getServedCount() {
+        return servedCount.get();
+    }
+
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    public int getTooManyRequestsCount() {
+        return tooManyRequestsCount.get();
+    }
+
+    public int getDisallowedRequestCount() {
+        return disallowedRequestCount.get();
+    }
+
+    public int getTagPageRequestCount() {
+        return tagPageRequestCount.get();
+    }
+
+    // User-Agent headers of all requests served so far
+    public Set<String> getUserAgents() {
+        return Set.copyOf(userAgents);
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String userAgent = exchange.getRequestHeaders().getFirst("User-Agent");
+        userAgents.add(userAgent != null ? userAgent : "");
+
+        if (path.equals("/")) {
+            respond(exchange, 200, renderIndex().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        if (path.equals("/robots.txt")) {
+            respond(exchange, 200, renderRobots().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        if (path.equals("/news-sitemap.xml")) {
+            respond(exchange, 200, renderSitemap().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        if (path.startsWith("/private/")) {
+            disallowedRequestCount.incrementAndGet();
+            respond(exchange, 200, articles.get(0));
+            return;
+        }
+
+        if (path.startsWith("/tag/")) {
+            tagPageRequestCount.incrementAndGet();
+            respond(exchange, 200, renderIndex().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        if (path.startsWith("/c/") && path.endsWith(".epi")) {
+            int number = Integer.parseInt(path.substring("/c/".length(), path.length() - ".epi".length()));
+            serveArticle(exchange, number);
+            return;
+        }
+
+        respond(exchange, 404, new byte[0]);
+    }
+
+    private void serveArticle(HttpExchange exchange, int number) throws IOException {
+        sleepQuietly(latencyMillis);
+
+        double roll;
+        synchronized (random) {
+            roll = random.nextDouble();
+        }
+
+        if (roll < tooManyRequestsRate) {
+            tooManyRequestsCount.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            respond(exchange, 429, new byte[0]);
+        } else if (roll < tooManyRequestsRate + errorRate) {
+            errorCount.incrementAndGet();
+            respond(exchange, 503, new byte[0]);
+        } else {
+            servedCount.incrementAndGet();
+            respond(exchange, 200, articles.get(number % articles.size()));
+        }
+    }
+
+    private String renderIndex() {
+        StringBuilder links = new StringBuilder();
+        for (int i = 0; i < articleCount; i++) {
+            links.append("<a href=\"/c/").append(i).append(".epi\">Recorded fixture article ")
+                    .append(i).append(" from the corpus</a>\n");
+        }
+        return indexPage.replace(ARTICLE_LINKS_MARKER, links);
+    }
+
+    private String renderRobots() {
+        return "User-agent: scraping\n"
+                + "Disallow: /private/\n"
+                + "Crawl-delay: 0\n"
+                + "\n"
+                + "User-agent: *\n"
+                + "Disallow: /\n"
+                + "\n"
+                + "Sitemap: " + getBaseUrl() + "/news-sitemap.xml\n";
+    }
+
+    private String renderSitemap() {
+        StringBuilder sitemap = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\" ")
+                .append("xmlns:news=\"http://www.google.com/schemas/sitemap-news/0.9\">\n");
+        for (int i = 0; i < articleCount; i++) {
+            sitemap.append("<url><loc>").append(getBaseUrl()).append("/c/").append(i).append(".epi</loc>")
+                    .append("<news:news><news:publication_date>")
+                    .append(LocalDate.of(2024, 1, 1).plusDays(i))
+                    .append("T08:00:00+07:00</news:publication_date></news:news></url>\n");
+        }
+        sitemap.append("<url><loc>").append(getBaseUrl()).append("/private/0.epi</loc><lastmod>2024-01-01</lastmod></url>\n")
+                .append("<url><loc>").append(getBaseUrl()).append("/tag/thoi-su</loc><lastmod>2024-01-01</lastmod></url>\n")
+                .append("</urlset>\n");
+        return sitemap.toString();
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String readResource(String name) {
+        try (InputStream in = ReplayFixtureServer.class.getResourceAsStream(CORPUS_ROOT + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing fixture " + CORPUS_ROOT + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.scraping.scrap;
+
+import com.example.scraping.dto.ScrapedImage;
+import com.example.scraping.trace.CrawlTrace;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScrapBaoMoiTests {
+
+    private static final String PAGE_URL = "https://baomoi.com/c/123.epi";
+
+    @Test
+    void collectsImagesFromTheWholeContentWithResolvedUrls() {
+        Document doc = Jsoup.parse("""
+                <html><body><div class="article-content">
+                  <p>First paragraph of the article text. <img src="/images/inline.jpg" alt="Inline" width="640" height="480"></p>
+                  <figure><img src="//cdn.baomoi.com/figure.jpg" alt="Figure"><figcaption>Caption</figcaption></figure>
+                  <div class="gallery"><img src="relative.jpg"></div>
+                  <img src="https://static.example.com/absolute.jpg">
+                  <img alt="No source">
+                </div></body></html>
+                """, PAGE_URL);
+
+        List<ScrapedImage> images = new ArrayList<>();
+        String content = new ScrapBaoMoi().extractContent(doc, images, new CrawlTrace(PAGE_URL));
+
+        assertThat(images).extracting(ScrapedImage::getUrl).containsExactly(
+                "https://baomoi.com/images/inline.jpg",
+                "https://cdn.baomoi.com/figure.jpg",
+                "https://baomoi.com/c/relative.jpg",
+                "https://static.example.com/absolute.jpg");
+        assertThat(images.get(0).getAlt()).isEqualTo("Inline");
+        assertThat(images.get(0).getWidth()).isEqualTo(640);
+        assertThat(images.get(0).getHeight()).isEqualTo(480);
+        assertThat(images.get(1).getWidth()).isNull();
+        // Images inside paragraphs keep their marker in the text
+        assertThat(content).contains("[img_https://baomoi.com/images/inline.jpg]");
+    }
+}
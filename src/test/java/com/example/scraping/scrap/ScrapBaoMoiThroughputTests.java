@@ -0,0 +1,118 @@
+package com.example.scraping.scrap;
+
+import com.example.scraping.fixture.ReplayFixtureServer;
+import com.example.scraping.repository.ScrapDataRepository;
+import com.example.scraping.repository.ScrapImageRepository;
+import com.example.scraping.trace.CrawlTraceRecorder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end crawl against the replay fixture server and the in-memory database.
+ * Corpus size, latency and fault rates can be overridden with {@code -Dbenchmark.*} system properties.
+ */
+@SpringBootTest
+class ScrapBaoMoiThroughputTests {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrapBaoMoiThroughputTests.class);
+
+    private static final ReplayFixtureServer server = new ReplayFixtureServer(
+            Integer.getInteger("benchmark.articles", 60),
+            Long.getLong("benchmark.latency-ms", 5L),
+            Double.parseDouble(System.getProperty("benchmark.error-rate", "0.05")),
+            Double.parseDouble(System.getProperty("benchmark.too-many-requests-rate", "0.05")),
+            42L).start();
+
+    @Autowired
+    private ScrapBaoMoi scrapBaoMoi;
+
+    @Autowired
+    private ScrapDataRepository scrapDataRepository;
+
+    @Autowired
+    private ScrapImageRepository scrapImageRepository;
+
+    @Autowired
+    private CrawlTraceRecorder crawlTraceRecorder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void scrapingProperties(DynamicPropertyRegistry registry) {
+        registry.add("scraping.base-url", server::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void crawlsRecordedCorpusOffline() throws Exception {
+        // Sample total heap during the run, per-pool peaks happen at different times and overstate it
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong peakHeapBytes = new AtomicLong(memory.getHeapMemoryUsage().getUsed());
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0, 10, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            scrapBaoMoi.startScraping();
+        } finally {
+            sampler.shutdownNow();
+        }
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        Timer fetchToCommit = meterRegistry.get("scraping.article.fetch-to-commit").timer();
+        long committed = fetchToCommit.count();
+
+        double p99Millis = 0;
+        for (ValueAtPercentile percentile : fetchToCommit.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                p99Millis = percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+
+        logger.info("Crawl benchmark: {} articles in {}s ({} articles/s), p99 fetch-to-commit {} ms, peak heap {} MB, "
+                        + "served {}, 5xx {}, 429 {}",
+                committed, String.format("%.2f", elapsedSeconds), String.format("%.1f", committed / elapsedSeconds),
+                String.format("%.1f", p99Millis), peakHeapBytes.get() / (1024 * 1024),
+                server.getServedCount(), server.getErrorCount(), server.getTooManyRequestsCount());
+
+        assertThat(committed).isEqualTo(server.getServedCount());
+        assertThat(committed).isPositive();
+        // Each committed article is stored exactly once
+        assertThat(scrapDataRepository.count()).isEqualTo(committed);
+        // Every corpus article carries exactly one image
+        assertThat(scrapImageRepository.count()).isEqualTo(committed);
+        // Every discovered article, including faulted and disallowed ones, leaves a trace
+        assertThat(crawlTraceRecorder.getRecordedCount())
+                .isEqualTo(server.getServedCount() + server.getErrorCount() + server.getTooManyRequestsCount() + 1);
+        assertThat(server.getDisallowedRequestCount()).isZero();
+        // Sitemap entries that are not articles are neither crawled nor traced
+        assertThat(server.getTagPageRequestCount()).isZero();
+        // Every request carries the robots.txt product token, so its group applies instead of the catch-all one
+        assertThat(server.getUserAgents()).containsExactly("scraping/1.0");
+        assertThat(crawlTraceRecorder.topSlowest(5)).hasSizeLessThanOrEqualTo(5).isNotEmpty();
+    }
+}
@@ -0,0 +1,291 @@
+package com.example.scraping.service;
+
+import com.example.scraping.dto.ScrapedImage;
+import com.example.scraping.entity.ScrapImage;
+import com.example.scraping.repository.ScrapImageRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Media probing against a local image server, with a single probe thread and a queue of one
+ * so that queue overflow and probe/save races can be driven deterministically.
+ */
+class ScrapImageServiceTests {
+
+    private static final byte[] PNG = png(3, 2);
+    private static final String USER_AGENT = "scraping/1.0 (+https://baomoi.com)";
+
+    private final Map<String, AtomicInteger> headRequests = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> getRequests = new ConcurrentHashMap<>();
+    private final Set<String> userAgents = ConcurrentHashMap.newKeySet();
+    // Requests under /slow/ wait for this latch, keeping the probe thread busy
+    private final CountDownLatch slowImages = new CountDownLatch(1);
+
+    private final List<ScrapImage> rows = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ScrapImageRepository scrapImageRepository;
+    private ScrapImageService scrapImageService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        scrapImageRepository = mock(ScrapImageRepository.class);
+        doAnswer(invocation -> store(invocation.getArgument(0))).when(scrapImageRepository).saveAll(anyIterable());
+        doAnswer(invocation -> findByMd5(invocation.getArgument(0))).when(scrapImageRepository).findByMd5(anyString());
+
+        scrapImageService = new ScrapImageService();
+        ReflectionTestUtils.setField(scrapImageService, "mediaFetchEnabled", true);
+        ReflectionTestUtils.setField(scrapImageService, "mediaFetchThreads", 1);
+        ReflectionTestUtils.setField(scrapImageService, "mediaFetchQueueCapacity", 1);
+        ReflectionTestUtils.setField(scrapImageService, "timeout", 5000);
+        ReflectionTestUtils.setField(scrapImageService, "userAgent", USER_AGENT);
+        ReflectionTestUtils.setField(scrapImageService, "scrapImageRepository", scrapImageRepository);
+        scrapImageService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowImages.countDown();
+        scrapImageService.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void probesEachImageOnlyOnce() {
+        for (long articleId = 1; articleId <= 3; articleId++) {
+            scrapImageService.saveImages(articleId, List.of(image("/slow/shared.png", null, null)));
+        }
+        slowImages.countDown();
+
+        awaitProbed(row(1L, "/slow/shared.png"), row(2L, "/slow/shared.png"), row(3L, "/slow/shared.png"));
+        assertThat(headRequests("/slow/shared.png")).isEqualTo(1);
+        assertThat(rows).allSatisfy(row -> {
+            assertThat(row.getContentType()).isEqualTo("image/png");
+            assertThat(row.getWidth()).isEqualTo(3);
+            assertThat(row.getHeight()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void fullQueueLetsALaterArticleProbeTheImageAgain() {
+        // The first probe occupies the only thread, the second fills the queue and the third is rejected
+        scrapImageService.saveImages(1L, List.of(
+                image("/slow/first.png", null, null),
+                image("/slow/second.png", null, null),
+                image("/slow/rejected.png", null, null)));
+        slowImages.countDown();
+
+        awaitProbed(row(1L, "/slow/first.png"), row(1L, "/slow/second.png"));
+        assertThat(row(1L, "/slow/rejected.png").getContentType()).isNull();
+        assertThat(headRequests("/slow/rejected.png")).isZero();
+
+        scrapImageService.saveImages(2L, List.of(image("/slow/rejected.png", null, null)));
+
+        awaitProbed(row(1L, "/slow/rejected.png"), row(2L, "/slow/rejected.png"));
+        assertThat(headRequests("/slow/rejected.png")).isEqualTo(1);
+    }
+
+    @Test
+    void resultPublishedBeforeSaveIsAppliedWithoutAnotherProbe() {
+        scrapImageService.saveImages(1L, List.of(image("/images/photo.png", null, null)));
+        awaitProbed(row(1L, "/images/photo.png"));
+
+        scrapImageService.saveImages(2L, List.of(image("/images/photo.png", null, null)));
+
+        // Applied synchronously from the stored result
+        ScrapImage row = row(2L, "/images/photo.png");
+        assertThat(row.getContentType()).isEqualTo("image/png");
+        assertThat(row.getContentLength()).isEqualTo(PNG.length);
+        assertThat(row.getWidth()).isEqualTo(3);
+        assertThat(row.getHeight()).isEqualTo(2);
+        assertThat(headRequests("/images/photo.png")).isEqualTo(1);
+    }
+
+    @Test
+    void resultPublishedDuringSaveIsAppliedToTheRow() {
+        scrapImageService.saveImages(1L, List.of(image("/slow/photo.png", null, null)));
+
+        // Let the probe finish while the second article's row is being saved, before the row is visible to it
+        CountDownLatch probeSaved = new CountDownLatch(1);
+        AtomicBoolean racing = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().startsWith("media-fetch-")) {
+                List<ScrapImage> saved = store(invocation.getArgument(0));
+                probeSaved.countDown();
+                return saved;
+            }
+            if (racing.compareAndSet(true, false)) {
+                slowImages.countDown();
+                assertThat(probeSaved.await(10, TimeUnit.SECONDS)).isTrue();
+            }
+            return store(invocation.getArgument(0));
+        }).when(scrapImageRepository).saveAll(anyIterable());
+
+        scrapImageService.saveImages(2L, List.of(image("/slow/photo.png", null, null)));
+
+        ScrapImage row = row(2L, "/slow/photo.png");
+        assertThat(row.getContentType()).isEqualTo("image/png");
+        assertThat(row.getWidth()).isEqualTo(3);
+        assertThat(row.getHeight()).isEqualTo(2);
+        assertThat(headRequests("/slow/photo.png")).isEqualTo(1);
+    }
+
+    @Test
+    void fillsDimensionsOnlyWhenBothAreMissing() {
+        // One image per article, so no probe overflows the queue
+        scrapImageService.saveImages(1L, List.of(image("/images/no-size.png", null, null)));
+        scrapImageService.saveImages(2L, List.of(image("/images/width-only.png", 100, null)));
+        ScrapImage noSize = row(1L, "/images/no-size.png");
+        ScrapImage widthOnly = row(2L, "/images/width-only.png");
+        awaitProbed(noSize, widthOnly);
+
+        scrapImageService.saveImages(3L, List.of(image("/images/sized.png", 10, 20)));
+        ScrapImage sized = row(3L, "/images/sized.png");
+        awaitProbed(sized);
+
+        assertThat(noSize.getWidth()).isEqualTo(3);
+        assertThat(noSize.getHeight()).isEqualTo(2);
+        assertThat(widthOnly.getWidth()).isEqualTo(100);
+        assertThat(widthOnly.getHeight()).isNull();
+        assertThat(sized.getWidth()).isEqualTo(10);
+        assertThat(sized.getHeight()).isEqualTo(20);
+        // Only the image without any dimensions is downloaded
+        assertThat(getRequests("/images/no-size.png")).isEqualTo(1);
+        assertThat(getRequests("/images/width-only.png")).isZero();
+        assertThat(getRequests("/images/sized.png")).isZero();
+        // Both the HEAD probe and the dimension download identify the crawler
+        assertThat(userAgents).containsExactly(USER_AGENT);
+    }
+
+    @Test
+    void malformedContentLengthKeepsTheRestOfTheResult() {
+        scrapImageService.saveImages(1L, List.of(image("/bad-length/photo.png", null, null)));
+
+        ScrapImage row = row(1L, "/bad-length/photo.png");
+        awaitProbed(row);
+        assertThat(row.getContentLength()).isNull();
+        assertThat(row.getWidth()).isEqualTo(3);
+        assertThat(row.getHeight()).isEqualTo(2);
+    }
+
+    private ScrapedImage image(String path, Integer width, Integer height) {
+        return new ScrapedImage(url(path), null, width, height);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private ScrapImage row(Long scrapDataId, String path) {
+        return rows.stream()
+                .filter(row -> row.getScrapDataId().equals(scrapDataId) && row.getUrl().equals(url(path)))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No row saved for " + path + " of article " + scrapDataId));
+    }
+
+    private static void awaitProbed(ScrapImage... probed) {
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> List.of(probed).stream().allMatch(row -> row.getContentType() != null));
+    }
+
+    private int headRequests(String path) {
+        return headRequests.getOrDefault(path, new AtomicInteger()).get();
+    }
+
+    private int getRequests(String path) {
+        return getRequests.getOrDefault(path, new AtomicInteger()).get();
+    }
+
+    // Keeps saved rows by identity, like a persistence context within one run
+    private List<ScrapImage> store(Iterable<ScrapImage> saved) {
+        List<ScrapImage> result = new CopyOnWriteArrayList<>();
+        for (ScrapImage row : saved) {
+            if (rows.stream().noneMatch(existing -> existing == row)) {
+                rows.add(row);
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    private List<ScrapImage> findByMd5(String md5) {
+        return rows.stream().filter(row -> md5.equals(row.getMd5())).toList();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        boolean head = exchange.getRequestMethod().equals("HEAD");
+        (head ? headRequests : getRequests).computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+        userAgents.add(String.valueOf(exchange.getRequestHeaders().getFirst("User-Agent")));
+
+        if (path.startsWith("/slow/")) {
+            try {
+                slowImages.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "image/png");
+        if (head) {
+            exchange.getResponseHeaders().set("Content-Length",
+                    path.startsWith("/bad-length/") ? "unknown" : String.valueOf(PNG.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, PNG.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(PNG);
+        }
+    }
+
+    private static byte[] png(int width, int height) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
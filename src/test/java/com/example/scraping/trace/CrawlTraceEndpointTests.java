@@ -0,0 +1,53 @@
+package com.example.scraping.trace;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static com.example.scraping.trace.CrawlTraceRecorderTests.recorder;
+import static com.example.scraping.trace.CrawlTraceRecorderTests.trace;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrawlTraceEndpointTests {
+
+    // Capacity 5 with 8 traces recorded, /c/8.epi being the slowest
+    private final CrawlTraceEndpoint endpoint = endpoint(5, 8);
+
+    @Test
+    void defaultLimitIsClampedToCapacity() {
+        assertThat(slowest(null)).hasSize(5);
+    }
+
+    @Test
+    void nonPositiveLimitReturnsTheSlowestPage() {
+        assertThat(slowest(0)).extracting(CrawlTrace::getUrl).containsExactly("/c/8.epi");
+        assertThat(slowest(-3)).extracting(CrawlTrace::getUrl).containsExactly("/c/8.epi");
+    }
+
+    @Test
+    void limitAboveCapacityIsClampedToCapacity() {
+        assertThat(slowest(100)).hasSize(5);
+    }
+
+    @Test
+    void limitWithinCapacityIsKept() {
+        assertThat(endpoint.slowestPages(2)).containsEntry("recorded", 8L);
+        assertThat(slowest(2)).extracting(CrawlTrace::getUrl).containsExactly("/c/8.epi", "/c/7.epi");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CrawlTrace> slowest(Integer limit) {
+        return (List<CrawlTrace>) endpoint.slowestPages(limit).get("slowest");
+    }
+
+    private static CrawlTraceEndpoint endpoint(int capacity, int traces) {
+        CrawlTraceRecorder recorder = recorder(capacity);
+        for (int i = 1; i <= traces; i++) {
+            recorder.record(trace("/c/" + i + ".epi", i * 10L));
+        }
+        CrawlTraceEndpoint endpoint = new CrawlTraceEndpoint();
+        ReflectionTestUtils.setField(endpoint, "crawlTraceRecorder", recorder);
+        return endpoint;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.scraping.trace;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrawlTraceRecorderTests {
+
+    @Test
+    void keepsOnlyTheMostRecentTracesWhenTheBufferWraps() {
+        CrawlTraceRecorder recorder = recorder(3);
+        for (int i = 1; i <= 5; i++) {
+            recorder.record(trace("/c/" + i + ".epi", i));
+        }
+
+        assertThat(recorder.getRecordedCount()).isEqualTo(5);
+        assertThat(recorder.topSlowest(10))
+                .extracting(CrawlTrace::getUrl)
+                .containsExactlyInAnyOrder("/c/3.epi", "/c/4.epi", "/c/5.epi");
+    }
+
+    @Test
+    void topSlowestIsOrderedByTotalTimeDescending() {
+        CrawlTraceRecorder recorder = recorder(10);
+        recorder.record(trace("/fast", 5));
+        recorder.record(trace("/slowest", 900));
+        recorder.record(trace("/medium", 120));
+        recorder.record(trace("/slow", 450));
+
+        assertThat(recorder.topSlowest(3))
+                .extracting(CrawlTrace::getUrl)
+                .containsExactly("/slowest", "/slow", "/medium");
+    }
+
+    @Test
+    void recordsNothingWhenDisabled() {
+        CrawlTraceRecorder recorder = recorder(3);
+        ReflectionTestUtils.setField(recorder, "enabled", false);
+
+        recorder.record(trace("/c/1.epi", 10));
+
+        assertThat(recorder.getRecordedCount()).isZero();
+        assertThat(recorder.topSlowest(3)).isEmpty();
+    }
+
+    static CrawlTraceRecorder recorder(int capacity) {
+        CrawlTraceRecorder recorder = new CrawlTraceRecorder();
+        ReflectionTestUtils.setField(recorder, "enabled", true);
+        ReflectionTestUtils.setField(recorder, "capacity", capacity);
+        ReflectionTestUtils.setField(recorder, "jfrEnabled", false);
+        recorder.init();
+        return recorder;
+    }
+
+    // A finished trace with a fixed total time, independent of the test's own timing
+    static CrawlTrace trace(String url, long totalMillis) {
+        CrawlTrace trace = new CrawlTrace(url);
+        trace.finish("saved");
+        ReflectionTestUtils.setField(trace, "totalNanos", totalMillis * 1_000_000);
+        return trace;
+    }
+}